@@ -3,7 +3,6 @@ package net.virtalab.android.geolib;
 import android.content.Context;
 import android.content.res.Resources;
 import android.location.Address;
-import android.location.Geocoder;
 import android.location.Location;
 import net.virtalab.android.geolib.exception.AddressDecoderException;
 
@@ -37,6 +36,16 @@ public class AddressDecoder {
      */
     private int limit;
 
+    /**
+     * Address resolver (Geocoder unless custom one set)
+     */
+    private AddressResolver resolver;
+
+    /**
+     * Status of last decode, null when address decoded
+     */
+    private Status status;
+
     /**
      * Constuctor with params replaces default constructor
      * @param params
@@ -47,6 +56,10 @@ public class AddressDecoder {
         this.ctx = params.getContext();
         this.locale = params.getLocale();
         this.limit = params.getLimit();
+        this.resolver = params.getResolver();
+        if(this.resolver == null && this.ctx != null){
+            this.resolver = new GeocoderAddressResolver(this.ctx,this.locale);
+        }
     }
 
     /**
@@ -65,39 +78,40 @@ public class AddressDecoder {
      * @return String with address (or addresses) or String with error is error occured
      */
     public String decode() throws AddressDecoderException {
+        this.status = null;
         //validation
-        if(location == null){ return this.generateErrorString(Status.LOCATION_IS_NULL); }
+        if(location == null){ return this.fail(Status.LOCATION_IS_NULL); }
         //also we validate coordinates
         double lat = location.getLatitude();
         double lng = location.getLongitude();
 
         LocationValidator.Result latValidation = LocationValidator.validateLatitude(lat);
         if(latValidation== LocationValidator.Result.OUT_OF_RANGE){
-            return this.generateErrorString(Status.LOCATION_OUT_OF_RANGE);
+            return this.fail(Status.LOCATION_OUT_OF_RANGE);
         }
         if(latValidation== LocationValidator.Result.UNPARSEABLE){
-            return  this.generateErrorString(Status.LOCATION_UNPARSEABLE);
+            return  this.fail(Status.LOCATION_UNPARSEABLE);
         }
         LocationValidator.Result lngValidation = LocationValidator.validateLongitude(lng);
         if(lngValidation == LocationValidator.Result.OUT_OF_RANGE){
-            return this.generateErrorString(Status.LOCATION_OUT_OF_RANGE);
+            return this.fail(Status.LOCATION_OUT_OF_RANGE);
         }
         if(lngValidation== LocationValidator.Result.UNPARSEABLE){
-            return  this.generateErrorString(Status.LOCATION_UNPARSEABLE);
+            return  this.fail(Status.LOCATION_UNPARSEABLE);
         }
 
 
         if(limit <= 0 ){
-            return this.generateErrorString(Status.LIMIT_IS_NOT_VALID);
+            return this.fail(Status.LIMIT_IS_NOT_VALID);
         }
         //decode
         List<Address> addresses = decode0();
 
         if(addresses==null){
-            return this.generateErrorString(Status.NO_ADDRESSES_FOUND);
+            return this.fail(Status.NO_ADDRESSES_FOUND);
         }
         if(addresses.size()==0){
-            return this.generateErrorString(Status.NO_ADDRESSES_FOUND);
+            return this.fail(Status.NO_ADDRESSES_FOUND);
         }
         //address found!
         StringBuilder sb = new StringBuilder();
@@ -120,25 +134,35 @@ public class AddressDecoder {
         return sb.toString();
     }
 
+    /**
+     * Returns status of last decode() call. Allows telling error string from address string
+     *
+     * @return status of failure or null when address is decoded (or decode() was not called yet)
+     */
+    public Status getStatus(){
+        return this.status;
+    }
+
     /**
      * Decoder
      *
      * @return list with resolved addresses
      */
     private List<Address> decode0() throws AddressDecoderException {
-        if(ctx==null){
+        if(ctx==null || resolver==null){
             return null;
         }
         List<Address> addresses = null;
         try{
-            Geocoder geoCoder = new Geocoder(ctx,locale);
-            addresses = geoCoder.getFromLocation(location.getLatitude(),location.getLongitude(),limit);
+            addresses = resolver.getFromLocation(location.getLatitude(),location.getLongitude(),limit);
         }catch (IllegalArgumentException iae){
             //report and exit
+            this.status = Status.LOCATION_OUT_OF_RANGE;
             String message = generateErrorString(Status.LOCATION_OUT_OF_RANGE);
             throw new AddressDecoderException(Status.LOCATION_OUT_OF_RANGE,message);
         }catch (IOException ioe){
             //report and exit
+            this.status = Status.SERVICE_IS_NA;
             String message = generateErrorString(Status.SERVICE_IS_NA);
             throw new AddressDecoderException(Status.SERVICE_IS_NA,message);
         }catch (NullPointerException npe){
@@ -148,6 +172,17 @@ public class AddressDecoder {
         return addresses;
     }
 
+    /**
+     * Remembers failure status
+     *
+     * @param errorCode one of class constants
+     * @return String with error message
+     */
+    private String fail(Status errorCode){
+        this.status = errorCode;
+        return generateErrorString(errorCode);
+    }
+
     /**
      * Generates error String depends on errorCode
      *
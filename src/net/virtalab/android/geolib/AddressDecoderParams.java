@@ -14,6 +14,7 @@ public class AddressDecoderParams {
     private Locale locale;
     private int limit;
     private Context ctx;
+    private AddressResolver resolver;
 
     /**
      * Builder class
@@ -26,6 +27,7 @@ public class AddressDecoderParams {
         //Optional params - init with defaults
         private Locale locale = Locale.getDefault();
         private int limit = 1;
+        private AddressResolver resolver = null; //Geocoder by default
 
         /**
          * Constructor with compulsory params
@@ -58,6 +60,16 @@ public class AddressDecoderParams {
             return this;
         }
 
+        /**
+         * Allows setting custom address resolver instead of Geocoder
+         * @param resolver custom resolver
+         * @return Builder object
+         */
+        public Builder resolver(AddressResolver resolver){
+            this.resolver = resolver;
+            return this;
+        }
+
         /**
          * Triggers build
          * @return AddressDecoderParam object
@@ -71,7 +83,7 @@ public class AddressDecoderParams {
         this.ctx = builder.ctx;
         this.locale = builder.locale;
         this.limit = builder.limit;
-
+        this.resolver = builder.resolver;
     }
     //Getters
     Location getLocation(){
@@ -86,4 +98,7 @@ public class AddressDecoderParams {
     Context getContext(){
         return this.ctx;
     }
+    AddressResolver getResolver(){
+        return this.resolver;
+    }
 }
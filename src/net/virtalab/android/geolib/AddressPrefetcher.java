@@ -0,0 +1,529 @@
+package net.virtalab.android.geolib;
+
+import android.content.Context;
+import android.location.Address;
+import android.location.Location;
+import android.location.LocationListener;
+import android.os.Bundle;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves addresses ahead of moving device
+ * <p/>
+ * Listens to location updates, extrapolates position from speed and bearing and resolves addresses of cells
+ * on predicted path at background. Cells are squares of cellSize degrees; every address inside cell is answered
+ * with address of cell center. Use it as AddressResolver at AddressDecoderParams.Builder to get decoded address
+ * without waiting for geocoder when device arrives to predicted cell.
+ * <p/>
+ * Lookups which are no longer on predicted path are cancelled on next location update. Call shutdown() when done.
+ */
+public class AddressPrefetcher implements AddressResolver, LocationListener {
+
+    /**
+     * Mean Earth radius in meters
+     */
+    private static final double EARTH_RADIUS = 6371000;
+
+    private AddressResolver resolver;
+    private int limit;
+    private double cellSize;
+    private long horizon;
+    private float minSpeed;
+    private int budget;
+
+    private ExecutorService executor;
+    private Map<Long,List<Address>> cache;
+    private Map<Long,PrefetchTask> pending = new HashMap<Long, PrefetchTask>();
+    private boolean shutdown = false;
+
+    private AtomicInteger hits = new AtomicInteger();
+    private AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Builder class
+     */
+    public static class Builder {
+        //Compulsory params
+        private Context ctx;
+
+        //Optional params - init with defaults
+        private Locale locale = Locale.getDefault();
+        private AddressResolver resolver = null; //Geocoder by default
+        private int limit = 1;
+        private double cellSize = 0.0005;
+        private long horizon = 30000;
+        private float minSpeed = 1;
+        private int budget = 2;
+        private int cacheSize = 64;
+
+        /**
+         * Constructor with compulsory params
+         *
+         * @param ctx Application context
+         */
+        public Builder(Context ctx){
+            this.ctx = ctx;
+        }
+
+        /**
+         * Set custom locale if you don't want you default locale
+         * @param locale custom locale
+         * @return Builder object
+         */
+        public Builder locale(Locale locale){
+            this.locale = locale;
+            return this;
+        }
+
+        /**
+         * Allows setting custom address resolver instead of Geocoder
+         * @param resolver custom resolver
+         * @return Builder object
+         */
+        public Builder resolver(AddressResolver resolver){
+            this.resolver = resolver;
+            return this;
+        }
+
+        /**
+         * Allows to set number of addresses to prefetch. Should be same as limit given to AddressDecoder, other limits are not cached
+         * @param limit max number of addresses
+         * @return Builder object
+         */
+        public Builder limit(int limit){
+            this.limit = limit;
+            return this;
+        }
+
+        /**
+         * Allows setting cell size. Default is 0.0005 degrees (about 55 meters of latitude)
+         * @param cellSize cell size in degrees
+         * @return Builder object
+         */
+        public Builder cellSize(double cellSize){
+            this.cellSize = cellSize;
+            return this;
+        }
+
+        /**
+         * Allows setting how far ahead position is predicted
+         * @param horizon prediction horizon in milliseconds
+         * @return Builder object
+         */
+        public Builder horizon(long horizon){
+            this.horizon = horizon;
+            return this;
+        }
+
+        /**
+         * Allows setting speed below which only current cell is prefetched
+         * @param minSpeed speed in meters/second
+         * @return Builder object
+         */
+        public Builder minSpeed(float minSpeed){
+            this.minSpeed = minSpeed;
+            return this;
+        }
+
+        /**
+         * Allows setting max number of background lookups running or waiting at same time
+         * @param budget number of lookups (1 or more)
+         * @return Builder object
+         */
+        public Builder budget(int budget){
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * Allows setting number of cells kept in cache
+         * @param cacheSize number of cells
+         * @return Builder object
+         */
+        public Builder cacheSize(int cacheSize){
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        /**
+         * Triggers build
+         * @return AddressPrefetcher object
+         */
+        public AddressPrefetcher build(){
+            if(this.resolver == null){
+                this.resolver = new GeocoderAddressResolver(this.ctx,this.locale);
+            }
+            return new AddressPrefetcher(this);
+        }
+    }
+
+    private AddressPrefetcher(Builder builder){
+        this.resolver = builder.resolver;
+        this.limit = Math.max(1,builder.limit);
+        this.cellSize = builder.cellSize > 0 ? builder.cellSize : 0.0005;
+        this.horizon = Math.max(0,builder.horizon);
+        this.minSpeed = builder.minSpeed;
+        this.budget = Math.max(1,builder.budget);
+
+        final int cacheSize = Math.max(1,builder.cacheSize);
+        this.cache = new LinkedHashMap<Long, List<Address>>(cacheSize,0.75f,true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<Address>> eldest){
+                return size() > cacheSize;
+            }
+        };
+        this.executor = Executors.newFixedThreadPool(this.budget,new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r){
+                Thread t = new Thread(r,"geolib-prefetch");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Returns addresses from cache when cell is already resolved, joins lookup of cell when it is running.
+     * Otherwise resolves cell center with underlying resolver on caller thread and caches result. Lookup on caller thread is
+     * registered as running, so concurrent callers and prefetch of same cell join it.
+     */
+    @Override
+    public List<Address> getFromLocation(double lat, double lng, int maxResults) throws IOException {
+        if(maxResults != limit){
+            return resolver.getFromLocation(lat,lng,maxResults);
+        }
+        long cell = cellOf(lat,lng);
+        PrefetchTask own = null;
+        PrefetchTask failed = null;
+        while (own == null){
+            PrefetchTask future;
+            synchronized (this){
+                List<Address> cached = cache.get(cell);
+                if(cached != null){
+                    hits.incrementAndGet();
+                    return cached;
+                }
+                if(shutdown){ break; }
+                future = pending.get(cell);
+                if(future == null || future == failed){
+                    //register lookup, so other callers and prefetch join it instead of starting second one
+                    own = new PrefetchTask(cell,false);
+                    pending.put(cell,own);
+                    break;
+                }
+            }
+            try{
+                List<Address> addresses = future.get();
+                //joined lookup of other caller waited for resolver as well
+                if(future.isBackground()){
+                    hits.incrementAndGet();
+                } else {
+                    misses.incrementAndGet();
+                }
+                return addresses;
+            }catch (InterruptedException ie){
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for prefetched address");
+            }catch (CancellationException ce){
+                //prediction went stale - resolve below
+                failed = future;
+            }catch (ExecutionException ee){
+                //lookup failed - retry below
+                failed = future;
+            }
+        }
+
+        misses.incrementAndGet();
+        if(own == null){
+            //shut down - no more lookups are registered
+            double[] center = centerOf(cell);
+            return resolver.getFromLocation(center[0],center[1],maxResults);
+        }
+        own.run();
+        try{
+            return own.get();
+        }catch (InterruptedException ie){
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while resolving address");
+        }catch (ExecutionException ee){
+            Throwable cause = ee.getCause();
+            if(cause instanceof IOException){ throw (IOException) cause; }
+            if(cause instanceof RuntimeException){ throw (RuntimeException) cause; }
+            if(cause instanceof Error){ throw (Error) cause; }
+            throw new IOException(String.valueOf(cause));
+        }
+    }
+
+    /**
+     * Predicts path from given fix and schedules lookups for cells on it. Stale lookups are cancelled.
+     */
+    @Override
+    public void onLocationChanged(Location location){
+        if(location == null){ return; }
+        Set<Long> predicted = predict(location);
+
+        List<PrefetchTask> stale = new ArrayList<PrefetchTask>();
+        synchronized (this){
+            //fix may still come while updates are being removed
+            if(shutdown){ return; }
+            Iterator<Map.Entry<Long,PrefetchTask>> it = pending.entrySet().iterator();
+            while (it.hasNext()){
+                Map.Entry<Long,PrefetchTask> entry = it.next();
+                //lookups on caller thread are left alone - someone waits for them
+                if(!predicted.contains(entry.getKey()) && entry.getValue().isBackground()){
+                    stale.add(entry.getValue());
+                    it.remove();
+                }
+            }
+            int running = 0;
+            for (PrefetchTask task : pending.values()){
+                if(task.isBackground()){ running++; }
+            }
+            for (Long cell : predicted){
+                if(running >= budget){ break; }
+                if(cache.containsKey(cell) || pending.containsKey(cell)){ continue; }
+                PrefetchTask task = new PrefetchTask(cell,true);
+                pending.put(cell,task);
+                try{
+                    executor.execute(task);
+                }catch (RejectedExecutionException ree){
+                    //task never runs - nobody may wait for it
+                    pending.remove(cell);
+                    task.cancel(false);
+                    break;
+                }
+                running++;
+            }
+        }
+        //cancel outside of iteration: cancelled task leaves pending from done()
+        for (PrefetchTask task : stale){
+            task.cancel(true);
+        }
+    }
+
+    @Override
+    public void onStatusChanged(String provider, int status, Bundle extras){ }
+
+    @Override
+    public void onProviderEnabled(String provider){ }
+
+    @Override
+    public void onProviderDisabled(String provider){ }
+
+    /**
+     * Cancels background lookups and stops prefetching. Later location updates are ignored,
+     * later lookups go to underlying resolver
+     */
+    public void shutdown(){
+        List<PrefetchTask> running;
+        synchronized (this){
+            shutdown = true;
+            running = new ArrayList<PrefetchTask>(pending.values());
+            pending.clear();
+        }
+        //lookups on caller thread finish on their own
+        for (PrefetchTask task : running){
+            if(task.isBackground()){
+                task.cancel(true);
+            }
+        }
+        for (Runnable queued : executor.shutdownNow()){
+            //already cancelled above, this is for lookups dropped from queue in any other way
+            if(queued instanceof Future){
+                ((Future<?>) queued).cancel(false);
+            }
+        }
+    }
+
+    /**
+     * @return number of lookups answered from cache or by background lookup
+     */
+    public int getHits(){
+        return hits.get();
+    }
+
+    /**
+     * @return number of lookups which waited for underlying resolver on caller thread (own lookup or lookup of other caller)
+     */
+    public int getMisses(){
+        return misses.get();
+    }
+
+    /**
+     * Cells on predicted path, nearest first
+     *
+     * @param location current fix
+     * @return ordered cell keys
+     */
+    private Set<Long> predict(Location location){
+        Set<Long> cells = new LinkedHashSet<Long>();
+        double lat = location.getLatitude();
+        double lng = location.getLongitude();
+        if(!isValid(lat,lng)){ return cells; }
+        cells.add(cellOf(lat,lng));
+
+        if(!location.hasSpeed() || !location.hasBearing() || location.getSpeed() < minSpeed){
+            return cells;
+        }
+        double range = location.getSpeed() * horizon / 1000.0;
+        double[] end = project(lat,lng,location.getBearing(),range);
+        walkCells(lat,lng,end[0],end[1],cells);
+        return cells;
+    }
+
+    /**
+     * Adds every cell crossed by straight segment (in degrees) between two points, in order of crossing.
+     * At prediction ranges segment is close enough to great circle.
+     *
+     * @param lat1 start latitude
+     * @param lng1 start longitude
+     * @param lat2 end latitude
+     * @param lng2 end longitude
+     * @param cells set to add cells to
+     */
+    private void walkCells(double lat1, double lng1, double lat2, double lng2, Set<Long> cells){
+        //unwrap longitude, so segment crossing 180th meridian goes short way
+        double dLng = normalizeLongitude(lng2 - lng1);
+        double dLat = lat2 - lat1;
+
+        double x = lng1 / cellSize;
+        double y = lat1 / cellSize;
+        double dx = dLng / cellSize;
+        double dy = dLat / cellSize;
+
+        long column = (long) Math.floor(x);
+        long row = (long) Math.floor(y);
+        long endColumn = (long) Math.floor(x + dx);
+        long endRow = (long) Math.floor(y + dy);
+
+        int stepColumn = dx > 0 ? 1 : -1;
+        int stepRow = dy > 0 ? 1 : -1;
+        double tDeltaX = dx != 0 ? Math.abs(1 / dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = dy != 0 ? Math.abs(1 / dy) : Double.POSITIVE_INFINITY;
+        double tMaxX = dx > 0 ? (column + 1 - x) / dx : dx < 0 ? (x - column) / -dx : Double.POSITIVE_INFINITY;
+        double tMaxY = dy > 0 ? (row + 1 - y) / dy : dy < 0 ? (y - row) / -dy : Double.POSITIVE_INFINITY;
+
+        long steps = Math.abs(endColumn - column) + Math.abs(endRow - row);
+        for (long i = 0; i <= steps; i++){
+            double centerLat = (row + 0.5) * cellSize;
+            double centerLng = normalizeLongitude((column + 0.5) * cellSize);
+            if(!isValid(centerLat,centerLng)){ break; }
+            cells.add(cellOf(centerLat,centerLng));
+
+            if(tMaxX < tMaxY){
+                tMaxX += tDeltaX;
+                column += stepColumn;
+            } else {
+                tMaxY += tDeltaY;
+                row += stepRow;
+            }
+        }
+    }
+
+    private static double normalizeLongitude(double lng){
+        return ((lng % 360) + 540) % 360 - 180;
+    }
+
+    private synchronized void store(long cell, List<Address> addresses){
+        //empty answer may be transient - let next lookup ask again
+        if(addresses == null || addresses.isEmpty()){ return; }
+        cache.put(cell,Collections.unmodifiableList(new ArrayList<Address>(addresses)));
+    }
+
+    private long cellOf(double lat, double lng){
+        long row = (long) Math.floor(lat / cellSize);
+        long column = (long) Math.floor(normalizeLongitude(lng) / cellSize);
+        return (row << 32) | (column & 0xffffffffL);
+    }
+
+    /**
+     * @param cell cell key
+     * @return latitude and longitude of cell center
+     */
+    private double[] centerOf(long cell){
+        return new double[]{((cell >> 32) + 0.5) * cellSize, (((int) cell) + 0.5) * cellSize};
+    }
+
+    private static boolean isValid(double lat, double lng){
+        return LocationValidator.validateLatitude(lat) == LocationValidator.Result.PASS
+                && LocationValidator.validateLongitude(lng) == LocationValidator.Result.PASS;
+    }
+
+    /**
+     * Point reached from given one moving along great circle
+     *
+     * @param lat latitude
+     * @param lng longitude
+     * @param bearing bearing in degrees
+     * @param distance distance in meters
+     * @return latitude and longitude of destination
+     */
+    private static double[] project(double lat, double lng, double bearing, double distance){
+        double d = distance / EARTH_RADIUS;
+        double b = Math.toRadians(bearing);
+        double lat1 = Math.toRadians(lat);
+        double lng1 = Math.toRadians(lng);
+
+        double lat2 = Math.asin(Math.sin(lat1) * Math.cos(d) + Math.cos(lat1) * Math.sin(d) * Math.cos(b));
+        double lng2 = lng1 + Math.atan2(Math.sin(b) * Math.sin(d) * Math.cos(lat1), Math.cos(d) - Math.sin(lat1) * Math.sin(lat2));
+
+        return new double[]{Math.toDegrees(lat2), normalizeLongitude(Math.toDegrees(lng2))};
+    }
+
+    /**
+     * Lookup of cell center. Background lookups run at executor, others on caller thread.
+     * Leaves pending lookups when finished or cancelled
+     */
+    private class PrefetchTask extends FutureTask<List<Address>> {
+        private long cell;
+        private boolean background;
+
+        PrefetchTask(final long cell, boolean background){
+            super(new Callable<List<Address>>() {
+                @Override
+                public List<Address> call() throws Exception {
+                    double[] center = centerOf(cell);
+                    List<Address> addresses = resolver.getFromLocation(center[0],center[1],limit);
+                    store(cell,addresses);
+                    return addresses;
+                }
+            });
+            this.cell = cell;
+            this.background = background;
+        }
+
+        boolean isBackground(){
+            return this.background;
+        }
+
+        @Override
+        protected void done(){
+            synchronized (AddressPrefetcher.this){
+                if(pending.get(cell) == this){
+                    pending.remove(cell);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package net.virtalab.android.geolib;
+
+import android.location.Address;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Resolves addresses from coordinates for AddressDecoder
+ * <p/>
+ * Contract follows Geocoder.getFromLocation(): IOException means that resolving service is not available,
+ * IllegalArgumentException means that coordinates are out of range
+ */
+public interface AddressResolver {
+
+    /**
+     * Returns addresses known to describe area around given coordinates
+     *
+     * @param lat latitude
+     * @param lng longitude
+     * @param maxResults max number of addresses to return
+     * @return list with addresses, empty list or null when nothing found
+     * @throws IOException when resolving service is not available
+     */
+    List<Address> getFromLocation(double lat, double lng, int maxResults) throws IOException;
+}
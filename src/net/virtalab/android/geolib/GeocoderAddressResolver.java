@@ -0,0 +1,29 @@
+package net.virtalab.android.geolib;
+
+import android.content.Context;
+import android.location.Address;
+import android.location.Geocoder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * AddressResolver backed by Geocoder
+ */
+class GeocoderAddressResolver implements AddressResolver {
+
+    private Context ctx;
+    private Locale locale;
+
+    GeocoderAddressResolver(Context ctx, Locale locale){
+        this.ctx = ctx;
+        this.locale = locale;
+    }
+
+    @Override
+    public List<Address> getFromLocation(double lat, double lng, int maxResults) throws IOException {
+        Geocoder geoCoder = new Geocoder(ctx,locale);
+        return geoCoder.getFromLocation(lat,lng,maxResults);
+    }
+}
@@ -0,0 +1,21 @@
+package net.virtalab.android.geolib;
+
+import android.location.Location;
+import net.virtalab.android.geolib.exception.LocationSourceException;
+
+/**
+ * Source of last known locations used by Locator
+ * <p/>
+ * Default implementation delegates to LocationManager. Custom implementations allow to run Locator without location service (ie replaying recorded traces)
+ */
+public interface LocationSource {
+
+    /**
+     * Returns last known location for given provider
+     *
+     * @param provider valid provider (see LocationManager constants)
+     * @return Location object or null when not found
+     * @throws LocationSourceException when location service cannot be used (Locator reports it as LOCATION_SERVICE_NOT_AVAILABLE)
+     */
+    Location getLastKnownLocation(String provider);
+}
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.content.res.Resources;
 import android.location.Location;
 import android.location.LocationManager;
+import net.virtalab.android.geolib.exception.LocationSourceException;
 import net.virtalab.android.geolib.exception.LocatorException;
 
 import java.text.DecimalFormat;
@@ -16,7 +17,7 @@ import java.text.ParseException;
  */
 public class Locator {
 
-    private LocationManager lm;
+    private LocationSource source;
     private String provider;
     private Context ctx;
 
@@ -37,7 +38,7 @@ public class Locator {
      * @param params Parameter object built with Locator.Builder
      */
     public Locator(LocatorParams params){
-        this.lm = params.getLocationManager();
+        this.source = params.getLocationSource();
         this.provider = params.getProvider();
         this.ctx = params.getContext();
     }
@@ -49,7 +50,7 @@ public class Locator {
      */
     public Location findLocation() throws LocatorException {
 
-        if(lm==null){
+        if(source==null){
             throw generateLocatorException(Failure.LOCATION_SERVICE_NOT_AVAILABLE);
         }
 
@@ -57,7 +58,11 @@ public class Locator {
             throw generateLocatorException(Failure.PROVIDER_IS_NOT_VALID);
         }
 
-        return lm.getLastKnownLocation(provider);
+        try{
+            return source.getLastKnownLocation(provider);
+        }catch (LocationSourceException lse){
+            throw generateLocatorException(Failure.LOCATION_SERVICE_NOT_AVAILABLE,lse);
+        }
     }
 
     /**
@@ -147,6 +152,11 @@ public class Locator {
           String message = this.getErrorString(failure);
            return new LocatorException(failure,message);
     }
+
+    private LocatorException generateLocatorException(Failure failure,Throwable cause){
+          String message = this.getErrorString(failure);
+           return new LocatorException(failure,message,cause);
+    }
     public enum Failure {
         /**
          * Result which indicates that parameter passed to method is NULL
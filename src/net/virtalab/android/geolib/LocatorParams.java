@@ -1,7 +1,6 @@
 package net.virtalab.android.geolib;
 
 import android.content.Context;
-import android.location.LocationListener;
 import android.location.LocationManager;
 
 /**
@@ -9,9 +8,9 @@ import android.location.LocationManager;
  *
  */
 public class LocatorParams {
-    private LocationManager lm =null;
     private String provider = null;
     private Context ctx = null;
+    private LocationSource source = null;
 
     /**
      * Builder for LocatorParams
@@ -23,6 +22,7 @@ public class LocatorParams {
 
         //Optional params - init with defaults
         private LocationManager lm = null; //lazy init
+        private LocationSource source = null; //LocationManager by default
 
         /**
          * Constructor with compulsory params
@@ -44,12 +44,24 @@ public class LocatorParams {
             return this;
         }
 
+        /**
+         * Allows setting custom location source instead of LocationManager
+         * @param source custom location source
+         * @return builder object
+         */
+        public Builder locationSource(LocationSource source){
+            this.source = source;
+            return this;
+        }
+
         /**
          * Triggers build
          * @return LocatorParams object
          */
         public LocatorParams build(){
-            this.lm = (LocationManager) this.ctx.getSystemService(Context.LOCATION_SERVICE);
+            if(this.lm == null && this.source == null){
+                this.lm = (LocationManager) this.ctx.getSystemService(Context.LOCATION_SERVICE);
+            }
             return new LocatorParams(this);
         }
     }
@@ -59,19 +71,22 @@ public class LocatorParams {
      * @param builder builder
      */
     private LocatorParams(Builder builder){
-        lm = builder.lm;
         provider = builder.provider;
         ctx = builder.ctx;
+        source = builder.source;
+        if(source == null && builder.lm != null){
+            source = new ManagerLocationSource(builder.lm);
+        }
     }
 
     //Getters
 
     /**
-     * Returns LocationManager (custom or gotten from context)
-     * @return LocationManager
+     * Returns LocationSource (custom or backed by LocationManager)
+     * @return LocationSource or null when location service is not available
      */
-    LocationManager getLocationManager(){
-        return this.lm;
+    LocationSource getLocationSource(){
+        return this.source;
     }
 
     /**
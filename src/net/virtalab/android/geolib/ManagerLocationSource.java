@@ -0,0 +1,21 @@
+package net.virtalab.android.geolib;
+
+import android.location.Location;
+import android.location.LocationManager;
+
+/**
+ * LocationSource backed by LocationManager
+ */
+class ManagerLocationSource implements LocationSource {
+
+    private LocationManager lm;
+
+    ManagerLocationSource(LocationManager lm){
+        this.lm = lm;
+    }
+
+    @Override
+    public Location getLastKnownLocation(String provider){
+        return lm.getLastKnownLocation(provider);
+    }
+}
@@ -0,0 +1,18 @@
+package net.virtalab.android.geolib.exception;
+
+/**
+ * Thrown by LocationSource when location service cannot be used.
+ * Locator reports it as LOCATION_SERVICE_NOT_AVAILABLE
+ *
+ * Created at: 10/19/26
+ */
+public class LocationSourceException extends RuntimeException {
+
+    public LocationSourceException(String message){
+        super(message);
+    }
+
+    public LocationSourceException(String message,Throwable cause){
+        super(message,cause);
+    }
+}
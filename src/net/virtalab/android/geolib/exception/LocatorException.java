@@ -16,6 +16,11 @@ public class LocatorException extends Exception {
            this.reason =reason;
     }
 
+    public LocatorException(Locator.Failure reason,String message,Throwable cause){
+           super(message,cause);
+           this.reason =reason;
+    }
+
     public Locator.Failure getReason(){
         return this.reason;
     }
@@ -0,0 +1,72 @@
+package net.virtalab.android.geolib.replay;
+
+import java.util.Random;
+
+/**
+ * Latency distribution used by stand-in services
+ * <p/>
+ */
+public abstract class Latency {
+
+    /**
+     * Draws next latency value
+     *
+     * @param random source of randomness (seeded by owner to keep replay deterministic)
+     * @return latency in milliseconds, never negative
+     */
+    public abstract long next(Random random);
+
+    /**
+     * No latency at all
+     * @return Latency object
+     */
+    public static Latency none(){
+        return fixed(0);
+    }
+
+    /**
+     * Same latency on every call
+     * @param millis latency in milliseconds
+     * @return Latency object
+     */
+    public static Latency fixed(final long millis){
+        return new Latency() {
+            @Override
+            public long next(Random random){
+                return Math.max(0,millis);
+            }
+        };
+    }
+
+    /**
+     * Latency uniformly distributed between min and max
+     * @param minMillis lower bound in milliseconds
+     * @param maxMillis upper bound in milliseconds
+     * @return Latency object
+     */
+    public static Latency uniform(final long minMillis, final long maxMillis){
+        return new Latency() {
+            @Override
+            public long next(Random random){
+                long span = Math.max(0,maxMillis - minMillis);
+                return Math.max(0,minMillis + (long) (random.nextDouble() * span));
+            }
+        };
+    }
+
+    /**
+     * Exponentially distributed latency added to fixed base. Gives long tail seen at network services.
+     * @param baseMillis minimal latency in milliseconds
+     * @param meanExtraMillis mean of exponential part in milliseconds
+     * @return Latency object
+     */
+    public static Latency exponential(final long baseMillis, final long meanExtraMillis){
+        return new Latency() {
+            @Override
+            public long next(Random random){
+                double extra = -Math.log(1 - random.nextDouble()) * meanExtraMillis;
+                return Math.max(0,baseMillis + (long) extra);
+            }
+        };
+    }
+}
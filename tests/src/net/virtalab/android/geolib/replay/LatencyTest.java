@@ -0,0 +1,57 @@
+package net.virtalab.android.geolib.replay;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Tests for Latency distributions
+ */
+public class LatencyTest extends TestCase {
+
+    private static final int DRAWS = 10000;
+
+    public void testNoneAndFixed(){
+        Random random = new Random(1);
+        assertEquals("none", 0L, Latency.none().next(random));
+        assertEquals("fixed", 25L, Latency.fixed(25).next(random));
+        assertEquals("negative fixed", 0L, Latency.fixed(-5).next(random));
+    }
+
+    public void testUniformStaysWithinBounds(){
+        Random random = new Random(2);
+        Latency latency = Latency.uniform(10, 20);
+        long sum = 0;
+        for (int i = 0; i < DRAWS; i++){
+            long value = latency.next(random);
+            assertTrue("below min: "+value, value >= 10);
+            assertTrue("above max: "+value, value <= 20);
+            sum += value;
+        }
+        double mean = (double) sum / DRAWS;
+        assertTrue("mean "+mean, mean > 14 && mean < 15.5);
+    }
+
+    public void testExponentialHasBaseAndMean(){
+        Random random = new Random(3);
+        Latency latency = Latency.exponential(5, 20);
+        long sum = 0;
+        for (int i = 0; i < DRAWS; i++){
+            long value = latency.next(random);
+            assertTrue("below base: "+value, value >= 5);
+            sum += value;
+        }
+        //truncation to whole milliseconds takes about half millisecond off mean
+        double mean = (double) sum / DRAWS;
+        assertTrue("mean "+mean, mean > 23 && mean < 26);
+    }
+
+    public void testSameSeedGivesSameSequence(){
+        Latency latency = Latency.exponential(0, 50);
+        Random first = new Random(42);
+        Random second = new Random(42);
+        for (int i = 0; i < 100; i++){
+            assertEquals("draw "+i, latency.next(first), latency.next(second));
+        }
+    }
+}
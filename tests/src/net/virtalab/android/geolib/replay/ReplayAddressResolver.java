@@ -0,0 +1,167 @@
+package net.virtalab.android.geolib.replay;
+
+import android.location.Address;
+import net.virtalab.android.geolib.AddressResolver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for Geocoder
+ * <p/>
+ * Answers with synthetic addresses after injected latency. Failures are injected with given probability:
+ * IOException (decoded by AddressDecoder as SERVICE_IS_NA) or empty result (NO_ADDRESSES_FOUND).
+ * Random draws come from single seeded generator, so given seed and call order outcomes are reproducible.
+ */
+public class ReplayAddressResolver implements AddressResolver {
+
+    private Latency latency;
+    private double failureRate;
+    private double notFoundRate;
+    private Locale locale;
+    private Random random;
+
+    private AtomicInteger calls = new AtomicInteger();
+    private AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * Builder class
+     */
+    public static class Builder {
+        //Optional params - init with defaults
+        private Latency latency = Latency.none();
+        private double failureRate = 0;
+        private double notFoundRate = 0;
+        private Locale locale = Locale.getDefault();
+        private long seed = 0;
+
+        /**
+         * Allows setting latency distribution
+         * @param latency latency of every call
+         * @return Builder object
+         */
+        public Builder latency(Latency latency){
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * Allows setting probability of IOException
+         * @param failureRate probability from 0 to 1
+         * @return Builder object
+         */
+        public Builder failureRate(double failureRate){
+            this.failureRate = failureRate;
+            return this;
+        }
+
+        /**
+         * Allows setting probability of empty result
+         * @param notFoundRate probability from 0 to 1
+         * @return Builder object
+         */
+        public Builder notFoundRate(double notFoundRate){
+            this.notFoundRate = notFoundRate;
+            return this;
+        }
+
+        /**
+         * Allows setting locale of synthetic addresses
+         * @param locale custom locale
+         * @return Builder object
+         */
+        public Builder locale(Locale locale){
+            this.locale = locale;
+            return this;
+        }
+
+        /**
+         * Allows setting seed of random generator
+         * @param seed seed
+         * @return Builder object
+         */
+        public Builder seed(long seed){
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Triggers build
+         * @return ReplayAddressResolver object
+         */
+        public ReplayAddressResolver build(){
+            return new ReplayAddressResolver(this);
+        }
+    }
+
+    private ReplayAddressResolver(Builder builder){
+        this.latency = builder.latency;
+        this.failureRate = builder.failureRate;
+        this.notFoundRate = builder.notFoundRate;
+        this.locale = builder.locale;
+        this.random = new Random(builder.seed);
+    }
+
+    @Override
+    public List<Address> getFromLocation(double lat, double lng, int maxResults) throws IOException {
+        if(maxResults <= 0 || lat < -90 || lat > 90 || lng < -180 || lng > 180){
+            throw new IllegalArgumentException("Coordinates or maxResults out of range");
+        }
+        calls.incrementAndGet();
+
+        long delay;
+        double failureDraw;
+        double notFoundDraw;
+        synchronized (random){
+            delay = latency.next(random);
+            failureDraw = random.nextDouble();
+            notFoundDraw = random.nextDouble();
+        }
+
+        if(delay > 0){
+            try{
+                Thread.sleep(delay);
+            }catch (InterruptedException ie){
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for service");
+            }
+        }
+
+        if(failureDraw < failureRate){
+            failures.incrementAndGet();
+            throw new IOException("Injected service failure");
+        }
+        if(notFoundDraw < notFoundRate){
+            return Collections.emptyList();
+        }
+
+        Address address = new Address(locale);
+        address.setLatitude(lat);
+        address.setLongitude(lng);
+        address.setAddressLine(0,String.format(Locale.US,"Replay street %.4f %.4f",lat,lng));
+        address.setLocality("Replay");
+        address.setCountryName("Replay");
+        List<Address> addresses = new ArrayList<Address>(1);
+        addresses.add(address);
+        return addresses;
+    }
+
+    /**
+     * @return number of lookups served (including failed ones)
+     */
+    public int getCalls(){
+        return calls.get();
+    }
+
+    /**
+     * @return number of injected IOExceptions
+     */
+    public int getFailures(){
+        return failures.get();
+    }
+}
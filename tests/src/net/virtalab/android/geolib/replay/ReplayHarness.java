@@ -0,0 +1,292 @@
+package net.virtalab.android.geolib.replay;
+
+import android.content.Context;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import net.virtalab.android.geolib.AddressDecoder;
+import net.virtalab.android.geolib.AddressDecoderParams;
+import net.virtalab.android.geolib.AddressResolver;
+import net.virtalab.android.geolib.Locator;
+import net.virtalab.android.geolib.LocatorParams;
+import net.virtalab.android.geolib.exception.AddressDecoderException;
+import net.virtalab.android.geolib.exception.LocatorException;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives Locator and AddressDecoder from recorded Trace
+ * <p/>
+ * Fixes are fed to Locator through ReplayLocationSource at trace pace divided by speed-up.
+ * Every found location is decoded at worker pool with bounded queue; requests which do not fit the queue are dropped and counted.
+ * Location source and address resolver default to stand-ins without latency and failures.
+ */
+public class ReplayHarness {
+
+    public static final double SPEEDUP_MIN = 1;
+    public static final double SPEEDUP_MAX = 1000;
+
+    private Trace trace;
+    private Context ctx;
+    private double speedup;
+    private int threads;
+    private int queueSize;
+    private AddressResolver resolver;
+    private ReplayLocationSource source;
+    private LocationListener listener;
+    private String provider;
+    private Locale locale;
+    private int limit;
+
+    /**
+     * Builder class
+     */
+    public static class Builder {
+        //Compulsory params
+        private Trace trace;
+        private Context ctx;
+
+        //Optional params - init with defaults
+        private double speedup = SPEEDUP_MIN;
+        private int threads = 1;
+        private int queueSize = 64;
+        private AddressResolver resolver = null; //lazy init
+        private ReplayLocationSource source = null; //lazy init
+        private LocationListener listener = null;
+        private String provider = LocationManager.GPS_PROVIDER;
+        private Locale locale = Locale.getDefault();
+        private int limit = 1;
+
+        /**
+         * Constructor with compulsory params
+         *
+         * @param trace trace to replay
+         * @param ctx Application context (used for resources by Locator and AddressDecoder)
+         */
+        public Builder(Trace trace, Context ctx){
+            this.trace = trace;
+            this.ctx = ctx;
+        }
+
+        /**
+         * Allows setting replay speed-up
+         * @param speedup from SPEEDUP_MIN (real time) to SPEEDUP_MAX
+         * @return Builder object
+         */
+        public Builder speedup(double speedup){
+            if(speedup < SPEEDUP_MIN || speedup > SPEEDUP_MAX){
+                throw new IllegalArgumentException("Speed-up must be between "+SPEEDUP_MIN+" and "+SPEEDUP_MAX);
+            }
+            this.speedup = speedup;
+            return this;
+        }
+
+        /**
+         * Allows setting number of concurrent decodes
+         * @param threads number of worker threads (1 or more)
+         * @return Builder object
+         */
+        public Builder threads(int threads){
+            this.threads = Math.max(1,threads);
+            return this;
+        }
+
+        /**
+         * Allows setting number of decodes which may wait for free worker
+         * @param queueSize queue capacity (1 or more)
+         * @return Builder object
+         */
+        public Builder queueSize(int queueSize){
+            this.queueSize = Math.max(1,queueSize);
+            return this;
+        }
+
+        /**
+         * Allows setting address resolver under test (ie ReplayAddressResolver with latency or caching resolver wrapping it)
+         * @param resolver custom resolver
+         * @return Builder object
+         */
+        public Builder resolver(AddressResolver resolver){
+            this.resolver = resolver;
+            return this;
+        }
+
+        /**
+         * Allows setting location source stand-in (ie with latency or failures)
+         * @param source custom location source
+         * @return Builder object
+         */
+        public Builder locationSource(ReplayLocationSource source){
+            this.source = source;
+            return this;
+        }
+
+        /**
+         * Allows setting listener which gets every found location before it is decoded (ie AddressPrefetcher)
+         * @param listener location listener
+         * @return Builder object
+         */
+        public Builder listener(LocationListener listener){
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Allows setting provider passed to Locator
+         * @param provider valid provider (see LocationManager constants)
+         * @return Builder object
+         */
+        public Builder provider(String provider){
+            this.provider = provider;
+            return this;
+        }
+
+        /**
+         * Allows setting locale passed to AddressDecoder
+         * @param locale custom locale
+         * @return Builder object
+         */
+        public Builder locale(Locale locale){
+            this.locale = locale;
+            return this;
+        }
+
+        /**
+         * Allows setting limit passed to AddressDecoder
+         * @param limit max number of addresses
+         * @return Builder object
+         */
+        public Builder limit(int limit){
+            this.limit = limit;
+            return this;
+        }
+
+        /**
+         * Triggers build
+         * @return ReplayHarness object
+         */
+        public ReplayHarness build(){
+            if(this.resolver == null){
+                this.resolver = new ReplayAddressResolver.Builder().locale(locale).build();
+            }
+            if(this.source == null){
+                this.source = new ReplayLocationSource.Builder().build();
+            }
+            return new ReplayHarness(this);
+        }
+    }
+
+    private ReplayHarness(Builder builder){
+        this.trace = builder.trace;
+        this.ctx = builder.ctx;
+        this.speedup = builder.speedup;
+        this.threads = builder.threads;
+        this.queueSize = builder.queueSize;
+        this.resolver = builder.resolver;
+        this.source = builder.source;
+        this.listener = builder.listener;
+        this.provider = builder.provider;
+        this.locale = builder.locale;
+        this.limit = builder.limit;
+    }
+
+    /**
+     * Replays whole trace and waits for all accepted decodes to finish
+     *
+     * @return report with achieved throughput and latency
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public ReplayReport run() throws InterruptedException {
+        final ReplayReport report = new ReplayReport();
+        LocatorParams locatorParams = new LocatorParams.Builder(provider,ctx).locationSource(source).build();
+        Locator locator = Locator.getLocator(locatorParams);
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads,threads,0,TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize),new ThreadPoolExecutor.AbortPolicy());
+
+        long start = System.nanoTime();
+        long traceStart = trace.size() > 0 ? trace.getRecords().get(0).getTime() : 0;
+        try{
+            for (TraceRecord record : trace.getRecords()){
+                long due = start + (long) ((record.getTime() - traceStart) * 1000000L / speedup);
+                long wait = due - System.nanoTime();
+                if(wait > 0){
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                report.fixReplayed(Math.max(0,TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - due)));
+                source.setLocation(record.toLocation(provider));
+
+                Location location;
+                long locatorStart = System.nanoTime();
+                try{
+                    location = locator.findLocation();
+                }catch (LocatorException le){
+                    report.locatorFailed(le.getReason());
+                    continue;
+                }finally {
+                    report.locatorCalled(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - locatorStart));
+                }
+                if(location == null){
+                    report.locationNotFound();
+                    continue;
+                }
+                if(listener != null){
+                    listener.onLocationChanged(location);
+                }
+
+                try{
+                    pool.execute(new DecodeTask(location,due,report));
+                    report.decodeSubmitted();
+                }catch (RejectedExecutionException ree){
+                    report.decodeDropped();
+                }
+            }
+        }finally {
+            pool.shutdown();
+        }
+        pool.awaitTermination(Long.MAX_VALUE,TimeUnit.MILLISECONDS);
+        report.finished(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return report;
+    }
+
+    /**
+     * Single decode at worker pool
+     */
+    private class DecodeTask implements Runnable {
+        private Location location;
+        private long due;
+        private ReplayReport report;
+
+        DecodeTask(Location location, long due, ReplayReport report){
+            this.location = location;
+            this.due = due;
+            this.report = report;
+        }
+
+        @Override
+        public void run(){
+            AddressDecoderParams params = new AddressDecoderParams.Builder(location,ctx)
+                    .resolver(resolver).locale(locale).limit(limit).build();
+            AddressDecoder decoder = AddressDecoder.getDecoder(params);
+            try{
+                decoder.decode();
+                //decode() returns error string instead of throwing for most failures
+                if(decoder.getStatus() != null){
+                    report.decodeFailed(decoder.getStatus());
+                } else {
+                    report.decodeSucceeded(elapsed());
+                }
+            }catch (AddressDecoderException ade){
+                report.decodeFailed(ade.getStatus());
+            }
+        }
+
+        private long elapsed(){
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - due);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package net.virtalab.android.geolib.replay;
+
+import android.test.AndroidTestCase;
+import net.virtalab.android.geolib.AddressDecoder;
+import net.virtalab.android.geolib.Locator;
+
+import java.io.StringReader;
+
+/**
+ * Tests for ReplayHarness accounting. Runs on device, as Location and Address are framework classes
+ */
+public class ReplayHarnessTest extends AndroidTestCase {
+
+    private static final int FIXES = 50;
+
+    public void testEveryFixIsDecoded() throws Exception {
+        ReplayReport report = new ReplayHarness.Builder(trace(FIXES,"60.0"),getContext())
+                .speedup(ReplayHarness.SPEEDUP_MAX).queueSize(FIXES).build().run();
+
+        assertEquals("fixes", FIXES, report.getFixes());
+        assertEquals("submitted", FIXES, report.getSubmitted());
+        assertEquals("decoded", FIXES, report.getDecoded());
+        assertEquals("completed", FIXES, report.getCompleted());
+        assertEquals("dropped", 0, report.getDropped());
+    }
+
+    public void testServiceFailuresAreReported() throws Exception {
+        ReplayAddressResolver resolver = new ReplayAddressResolver.Builder().failureRate(1).build();
+        ReplayReport report = new ReplayHarness.Builder(trace(FIXES,"60.0"),getContext())
+                .speedup(ReplayHarness.SPEEDUP_MAX).queueSize(FIXES).resolver(resolver).build().run();
+
+        assertEquals("decoded", 0, report.getDecoded());
+        assertEquals("service na", FIXES, report.getDecodeFailures(AddressDecoder.Status.SERVICE_IS_NA));
+        assertEquals("injected", FIXES, resolver.getFailures());
+    }
+
+    public void testEmptyAnswersAreReported() throws Exception {
+        ReplayAddressResolver resolver = new ReplayAddressResolver.Builder().notFoundRate(1).build();
+        ReplayReport report = new ReplayHarness.Builder(trace(FIXES,"60.0"),getContext())
+                .speedup(ReplayHarness.SPEEDUP_MAX).queueSize(FIXES).resolver(resolver).build().run();
+
+        assertEquals("decoded", 0, report.getDecoded());
+        assertEquals("not found", FIXES, report.getDecodeFailures(AddressDecoder.Status.NO_ADDRESSES_FOUND));
+    }
+
+    public void testDecoderValidationFailuresAreReported() throws Exception {
+        ReplayReport report = new ReplayHarness.Builder(trace(FIXES,"60.0"),getContext())
+                .speedup(ReplayHarness.SPEEDUP_MAX).queueSize(FIXES).limit(0).build().run();
+        assertEquals("decoded", 0, report.getDecoded());
+        assertEquals("limit", FIXES, report.getDecodeFailures(AddressDecoder.Status.LIMIT_IS_NOT_VALID));
+
+        report = new ReplayHarness.Builder(trace(FIXES,"95.0"),getContext())
+                .speedup(ReplayHarness.SPEEDUP_MAX).queueSize(FIXES).build().run();
+        assertEquals("decoded", 0, report.getDecoded());
+        assertEquals("range", FIXES, report.getDecodeFailures(AddressDecoder.Status.LOCATION_OUT_OF_RANGE));
+    }
+
+    public void testLocatorFailuresAreReported() throws Exception {
+        ReplayLocationSource unavailable = new ReplayLocationSource.Builder().unavailableRate(1).build();
+        ReplayReport report = new ReplayHarness.Builder(trace(FIXES,"60.0"),getContext())
+                .speedup(ReplayHarness.SPEEDUP_MAX).locationSource(unavailable).build().run();
+        assertEquals("service na", FIXES, report.getLocatorFailures(Locator.Failure.LOCATION_SERVICE_NOT_AVAILABLE));
+        assertEquals("submitted", 0, report.getSubmitted());
+
+        ReplayLocationSource empty = new ReplayLocationSource.Builder().notFoundRate(1).build();
+        report = new ReplayHarness.Builder(trace(FIXES,"60.0"),getContext())
+                .speedup(ReplayHarness.SPEEDUP_MAX).locationSource(empty).build().run();
+        assertEquals("not found", FIXES, report.getLocationsNotFound());
+        assertEquals("submitted", 0, report.getSubmitted());
+    }
+
+    public void testFullQueueDropsRequests() throws Exception {
+        ReplayAddressResolver slow = new ReplayAddressResolver.Builder().latency(Latency.fixed(200)).build();
+        ReplayReport report = new ReplayHarness.Builder(trace(FIXES,"60.0"),getContext())
+                .speedup(ReplayHarness.SPEEDUP_MAX).threads(1).queueSize(1).resolver(slow).build().run();
+
+        assertTrue("nothing dropped", report.getDropped() > 0);
+        assertEquals("fixes", FIXES, report.getSubmitted() + report.getDropped());
+        assertEquals("completed", report.getSubmitted(), report.getCompleted());
+    }
+
+    /**
+     * Trace with one fix per second along meridian
+     */
+    private static Trace trace(int fixes, String lat) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fixes; i++){
+            sb.append(i * 1000).append(',').append(lat).append(',').append(25.0 + i * 0.0001).append('\n');
+        }
+        return Trace.parse(new StringReader(sb.toString()));
+    }
+}
@@ -0,0 +1,129 @@
+package net.virtalab.android.geolib.replay;
+
+import android.location.Location;
+import net.virtalab.android.geolib.LocationSource;
+import net.virtalab.android.geolib.exception.LocationSourceException;
+
+import java.util.Random;
+
+/**
+ * In-process stand-in for LocationManager
+ * <p/>
+ * Returns fix which was set last by ReplayHarness after injected latency. Same fix is returned for every provider.
+ * Failures are injected with given probability: LocationSourceException (reported by Locator as LOCATION_SERVICE_NOT_AVAILABLE)
+ * or no fix at all. Random draws come from single seeded generator, so given seed and call order outcomes are reproducible.
+ */
+public class ReplayLocationSource implements LocationSource {
+
+    private Latency latency;
+    private double unavailableRate;
+    private double notFoundRate;
+    private Random random;
+
+    private volatile Location current;
+
+    /**
+     * Builder class
+     */
+    public static class Builder {
+        //Optional params - init with defaults
+        private Latency latency = Latency.none();
+        private double unavailableRate = 0;
+        private double notFoundRate = 0;
+        private long seed = 0;
+
+        /**
+         * Allows setting latency distribution
+         * @param latency latency of every call
+         * @return Builder object
+         */
+        public Builder latency(Latency latency){
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * Allows setting probability of service being not available
+         * @param unavailableRate probability from 0 to 1
+         * @return Builder object
+         */
+        public Builder unavailableRate(double unavailableRate){
+            this.unavailableRate = unavailableRate;
+            return this;
+        }
+
+        /**
+         * Allows setting probability of returning no fix
+         * @param notFoundRate probability from 0 to 1
+         * @return Builder object
+         */
+        public Builder notFoundRate(double notFoundRate){
+            this.notFoundRate = notFoundRate;
+            return this;
+        }
+
+        /**
+         * Allows setting seed of random generator
+         * @param seed seed
+         * @return Builder object
+         */
+        public Builder seed(long seed){
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Triggers build
+         * @return ReplayLocationSource object
+         */
+        public ReplayLocationSource build(){
+            return new ReplayLocationSource(this);
+        }
+    }
+
+    private ReplayLocationSource(Builder builder){
+        this.latency = builder.latency;
+        this.unavailableRate = builder.unavailableRate;
+        this.notFoundRate = builder.notFoundRate;
+        this.random = new Random(builder.seed);
+    }
+
+    /**
+     * Sets fix which will be returned as last known location
+     *
+     * @param location current fix
+     */
+    public void setLocation(Location location){
+        this.current = location;
+    }
+
+    @Override
+    public Location getLastKnownLocation(String provider){
+        long delay;
+        double unavailableDraw;
+        double notFoundDraw;
+        synchronized (random){
+            delay = latency.next(random);
+            unavailableDraw = random.nextDouble();
+            notFoundDraw = random.nextDouble();
+        }
+
+        if(delay > 0){
+            try{
+                Thread.sleep(delay);
+            }catch (InterruptedException ie){
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        if(unavailableDraw < unavailableRate){
+            throw new LocationSourceException("Injected location service failure");
+        }
+        Location location = this.current;
+        if(location == null || notFoundDraw < notFoundRate){
+            return null;
+        }
+        return new Location(location);
+    }
+}
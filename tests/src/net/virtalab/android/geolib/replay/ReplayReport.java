@@ -0,0 +1,201 @@
+package net.virtalab.android.geolib.replay;
+
+import net.virtalab.android.geolib.AddressDecoder;
+import net.virtalab.android.geolib.Locator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Results of single ReplayHarness run
+ * <p/>
+ * Latency of decode is measured from moment fix was due by trace schedule to moment decode finished,
+ * so time spent on location lookup and waiting in harness queue is included. Latency and throughput count successful decodes only.
+ * Latency of location lookup itself is recorded separately for every Locator call.
+ */
+public class ReplayReport {
+
+    private int fixes = 0;
+    private int locationsNotFound = 0;
+    private int submitted = 0;
+    private int dropped = 0;
+    private int decoded = 0;
+    private int failed = 0;
+    private long elapsedMillis = 0;
+    private long maxScheduleLagMillis = 0;
+
+    private Map<Locator.Failure,Integer> locatorFailures = new EnumMap<Locator.Failure, Integer>(Locator.Failure.class);
+    private Map<AddressDecoder.Status,Integer> decodeFailures = new EnumMap<AddressDecoder.Status, Integer>(AddressDecoder.Status.class);
+    private List<Long> latencies = new ArrayList<Long>();
+    private List<Long> locatorLatencies = new ArrayList<Long>();
+
+    //Collectors (used by harness)
+    synchronized void fixReplayed(long lagMillis){
+        fixes++;
+        maxScheduleLagMillis = Math.max(maxScheduleLagMillis,lagMillis);
+    }
+    synchronized void locatorCalled(long latencyMillis){
+        locatorLatencies.add(latencyMillis);
+    }
+    synchronized void locatorFailed(Locator.Failure failure){
+        Integer count = locatorFailures.get(failure);
+        locatorFailures.put(failure,count == null ? 1 : count + 1);
+    }
+    synchronized void locationNotFound(){
+        locationsNotFound++;
+    }
+    synchronized void decodeSubmitted(){
+        submitted++;
+    }
+    synchronized void decodeDropped(){
+        dropped++;
+    }
+    synchronized void decodeSucceeded(long latencyMillis){
+        decoded++;
+        latencies.add(latencyMillis);
+    }
+    synchronized void decodeFailed(AddressDecoder.Status status){
+        Integer count = decodeFailures.get(status);
+        decodeFailures.put(status,count == null ? 1 : count + 1);
+        failed++;
+    }
+    synchronized void finished(long elapsedMillis){
+        this.elapsedMillis = elapsedMillis;
+        Collections.sort(latencies);
+        Collections.sort(locatorLatencies);
+    }
+
+    //Getters
+
+    /**
+     * @return number of trace fixes replayed
+     */
+    public synchronized int getFixes(){
+        return this.fixes;
+    }
+
+    /**
+     * @return number of times Locator returned no location
+     */
+    public synchronized int getLocationsNotFound(){
+        return this.locationsNotFound;
+    }
+
+    /**
+     * @return number of decode requests accepted by harness queue
+     */
+    public synchronized int getSubmitted(){
+        return this.submitted;
+    }
+
+    /**
+     * @return number of decode requests rejected because harness queue was full
+     */
+    public synchronized int getDropped(){
+        return this.dropped;
+    }
+
+    /**
+     * @return number of successful decodes
+     */
+    public synchronized int getDecoded(){
+        return this.decoded;
+    }
+
+    /**
+     * @return number of decodes finished (successfully or not)
+     */
+    public synchronized int getCompleted(){
+        return this.decoded + this.failed;
+    }
+
+    /**
+     * @param failure Locator failure
+     * @return number of times Locator failed with given reason
+     */
+    public synchronized int getLocatorFailures(Locator.Failure failure){
+        Integer count = locatorFailures.get(failure);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @param status AddressDecoder status
+     * @return number of decodes failed with given status
+     */
+    public synchronized int getDecodeFailures(AddressDecoder.Status status){
+        Integer count = decodeFailures.get(status);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return wall time of run in milliseconds
+     */
+    public synchronized long getElapsedMillis(){
+        return this.elapsedMillis;
+    }
+
+    /**
+     * @return max delay between time fix was due and time it was replayed. Big values mean harness cannot keep up with speed-up
+     */
+    public synchronized long getMaxScheduleLagMillis(){
+        return this.maxScheduleLagMillis;
+    }
+
+    /**
+     * @return achieved throughput in successful decodes per second
+     */
+    public synchronized double getThroughput(){
+        if(elapsedMillis <= 0){ return 0; }
+        return decoded * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * Returns latency percentile of successful decodes
+     *
+     * @param percentile percentile from 0 to 100
+     * @return latency in milliseconds or 0 if nothing decoded
+     */
+    public synchronized long getLatencyPercentile(double percentile){
+        return percentile(latencies,percentile);
+    }
+
+    /**
+     * Returns latency percentile of Locator calls (successful or not)
+     *
+     * @param percentile percentile from 0 to 100
+     * @return latency in milliseconds or 0 if Locator was not called
+     */
+    public synchronized long getLocatorLatencyPercentile(double percentile){
+        return percentile(locatorLatencies,percentile);
+    }
+
+    /**
+     * Nearest-rank percentile
+     *
+     * @param sorted values sorted ascending
+     * @param percentile percentile from 0 to 100
+     * @return value or 0 if there are no values
+     */
+    private static long percentile(List<Long> sorted, double percentile){
+        if(sorted.isEmpty()){ return 0; }
+        double p = Math.min(100,Math.max(0,percentile));
+        int index = (int) Math.ceil(p / 100 * sorted.size()) - 1;
+        return sorted.get(Math.max(0,index));
+    }
+
+    @Override
+    public synchronized String toString(){
+        return String.format(Locale.US,
+                "fixes=%d submitted=%d dropped=%d decoded=%d failed=%s locatorFailed=%s notFound=%d " +
+                "elapsed=%dms lag=%dms throughput=%.1f/s latency p50=%dms p95=%dms p99=%dms max=%dms " +
+                "locatorLatency p50=%dms p99=%dms",
+                fixes,submitted,dropped,decoded,decodeFailures,locatorFailures,locationsNotFound,
+                elapsedMillis,maxScheduleLagMillis,getThroughput(),
+                getLatencyPercentile(50),getLatencyPercentile(95),getLatencyPercentile(99),getLatencyPercentile(100),
+                getLocatorLatencyPercentile(50),getLocatorLatencyPercentile(99));
+    }
+}
@@ -0,0 +1,73 @@
+package net.virtalab.android.geolib.replay;
+
+import junit.framework.TestCase;
+import net.virtalab.android.geolib.AddressDecoder;
+import net.virtalab.android.geolib.Locator;
+
+/**
+ * Tests for ReplayReport math and counters
+ */
+public class ReplayReportTest extends TestCase {
+
+    public void testNearestRankPercentiles(){
+        ReplayReport report = new ReplayReport();
+        //added out of order - report sorts on finish
+        for (int i = 100; i >= 1; i--){
+            report.decodeSucceeded(i);
+        }
+        report.finished(1000);
+
+        assertEquals("p0", 1L, report.getLatencyPercentile(0));
+        assertEquals("p1", 1L, report.getLatencyPercentile(1));
+        assertEquals("p50", 50L, report.getLatencyPercentile(50));
+        assertEquals("p95", 95L, report.getLatencyPercentile(95));
+        assertEquals("p99", 99L, report.getLatencyPercentile(99));
+        assertEquals("p100", 100L, report.getLatencyPercentile(100));
+        assertEquals("above 100 is clamped", 100L, report.getLatencyPercentile(150));
+    }
+
+    public void testPercentilesOfSmallAndEmptySets(){
+        ReplayReport report = new ReplayReport();
+        report.finished(10);
+        assertEquals("empty", 0L, report.getLatencyPercentile(50));
+        assertEquals("empty locator", 0L, report.getLocatorLatencyPercentile(50));
+
+        report = new ReplayReport();
+        report.decodeSucceeded(7);
+        report.decodeSucceeded(3);
+        report.locatorCalled(4);
+        report.finished(10);
+        assertEquals("p50 of two", 3L, report.getLatencyPercentile(50));
+        assertEquals("p51 of two", 7L, report.getLatencyPercentile(51));
+        assertEquals("locator", 4L, report.getLocatorLatencyPercentile(99));
+    }
+
+    public void testCountersAndThroughput(){
+        ReplayReport report = new ReplayReport();
+        report.fixReplayed(0);
+        report.fixReplayed(12);
+        report.fixReplayed(3);
+        report.decodeSubmitted();
+        report.decodeSubmitted();
+        report.decodeDropped();
+        report.decodeSucceeded(100);
+        report.decodeFailed(AddressDecoder.Status.SERVICE_IS_NA);
+        report.locatorFailed(Locator.Failure.LOCATION_SERVICE_NOT_AVAILABLE);
+        report.locatorFailed(Locator.Failure.LOCATION_SERVICE_NOT_AVAILABLE);
+        report.locationNotFound();
+        report.finished(500);
+
+        assertEquals("fixes", 3, report.getFixes());
+        assertEquals("lag", 12L, report.getMaxScheduleLagMillis());
+        assertEquals("submitted", 2, report.getSubmitted());
+        assertEquals("dropped", 1, report.getDropped());
+        assertEquals("decoded", 1, report.getDecoded());
+        assertEquals("completed", 2, report.getCompleted());
+        assertEquals("service na", 1, report.getDecodeFailures(AddressDecoder.Status.SERVICE_IS_NA));
+        assertEquals("not found", 0, report.getDecodeFailures(AddressDecoder.Status.NO_ADDRESSES_FOUND));
+        assertEquals("locator failures", 2, report.getLocatorFailures(Locator.Failure.LOCATION_SERVICE_NOT_AVAILABLE));
+        assertEquals("locations not found", 1, report.getLocationsNotFound());
+        //only successful decodes count: 1 per 500 ms
+        assertEquals("throughput", 2.0, report.getThroughput(), 0.0001);
+    }
+}
@@ -0,0 +1,89 @@
+package net.virtalab.android.geolib.replay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Recorded sequence of fixes which ReplayHarness drives library with
+ * <p/>
+ * Text format is one fix per line: <code>time,lat,lng[,speed,bearing]</code>. Time is in milliseconds.
+ * Empty lines and lines starting with # are skipped.
+ */
+public class Trace {
+
+    private List<TraceRecord> records;
+
+    /**
+     * Constructor
+     *
+     * @param records recorded fixes ordered by time
+     */
+    public Trace(List<TraceRecord> records){
+        this.records = Collections.unmodifiableList(new ArrayList<TraceRecord>(records));
+    }
+
+    /**
+     * Reads trace from text source
+     *
+     * @param reader source with trace in text format
+     * @return Trace object
+     * @throws IOException when source cannot be read or line cannot be parsed
+     */
+    public static Trace parse(Reader reader) throws IOException {
+        BufferedReader br = new BufferedReader(reader);
+        List<TraceRecord> records = new ArrayList<TraceRecord>();
+        String line;
+        int lineNumber = 0;
+        while ((line = br.readLine()) != null){
+            lineNumber++;
+            line = line.trim();
+            if(line.length()==0 || line.startsWith("#")){ continue; }
+
+            String[] fields = line.split(",");
+            if(fields.length != 3 && fields.length != 5){
+                throw new IOException("Line "+lineNumber+": expected 3 or 5 fields, got "+fields.length);
+            }
+            try{
+                long time = Long.parseLong(fields[0].trim());
+                double lat = Double.parseDouble(fields[1].trim());
+                double lng = Double.parseDouble(fields[2].trim());
+                if(fields.length == 5){
+                    float speed = Float.parseFloat(fields[3].trim());
+                    float bearing = Float.parseFloat(fields[4].trim());
+                    records.add(new TraceRecord(time,lat,lng,speed,bearing));
+                } else {
+                    records.add(new TraceRecord(time,lat,lng));
+                }
+            }catch (NumberFormatException nfe){
+                throw new IOException("Line "+lineNumber+": "+nfe.getMessage());
+            }
+        }
+        return new Trace(records);
+    }
+
+    /**
+     * @return recorded fixes
+     */
+    public List<TraceRecord> getRecords(){
+        return this.records;
+    }
+
+    /**
+     * @return number of recorded fixes
+     */
+    public int size(){
+        return this.records.size();
+    }
+
+    /**
+     * @return time between first and last fix in milliseconds
+     */
+    public long getDuration(){
+        if(records.isEmpty()){ return 0; }
+        return records.get(records.size()-1).getTime() - records.get(0).getTime();
+    }
+}
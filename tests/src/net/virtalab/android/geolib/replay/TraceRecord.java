@@ -0,0 +1,85 @@
+package net.virtalab.android.geolib.replay;
+
+import android.location.Location;
+
+/**
+ * Single recorded fix of a Trace
+ * <p/>
+ */
+public class TraceRecord {
+    private long time;
+    private double lat;
+    private double lng;
+    private float speed;
+    private float bearing;
+    private boolean hasMotion;
+
+    /**
+     * Constructor for fix without speed and bearing
+     *
+     * @param time time of fix in milliseconds (absolute or relative to trace start)
+     * @param lat latitude
+     * @param lng longitude
+     */
+    public TraceRecord(long time, double lat, double lng){
+        this.time = time;
+        this.lat = lat;
+        this.lng = lng;
+        this.hasMotion = false;
+    }
+
+    /**
+     * Constructor for fix with speed and bearing
+     *
+     * @param time time of fix in milliseconds (absolute or relative to trace start)
+     * @param lat latitude
+     * @param lng longitude
+     * @param speed speed in meters/second
+     * @param bearing bearing in degrees
+     */
+    public TraceRecord(long time, double lat, double lng, float speed, float bearing){
+        this.time = time;
+        this.lat = lat;
+        this.lng = lng;
+        this.speed = speed;
+        this.bearing = bearing;
+        this.hasMotion = true;
+    }
+
+    public long getTime(){
+        return this.time;
+    }
+    public double getLatitude(){
+        return this.lat;
+    }
+    public double getLongitude(){
+        return this.lng;
+    }
+    public float getSpeed(){
+        return this.speed;
+    }
+    public float getBearing(){
+        return this.bearing;
+    }
+    public boolean hasMotion(){
+        return this.hasMotion;
+    }
+
+    /**
+     * Creates Location object from this record. Speed and bearing are set only when record has them
+     *
+     * @param provider provider name to set
+     * @return Location object
+     */
+    public Location toLocation(String provider){
+        Location location = new Location(provider);
+        location.setTime(time);
+        location.setLatitude(lat);
+        location.setLongitude(lng);
+        if(hasMotion){
+            location.setSpeed(speed);
+            location.setBearing(bearing);
+        }
+        return location;
+    }
+}
@@ -0,0 +1,64 @@
+package net.virtalab.android.geolib.replay;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Tests for Trace parser
+ */
+public class TraceTest extends TestCase {
+
+    public void testParsesFixesWithAndWithoutMotion() throws Exception {
+        Trace trace = Trace.parse(new StringReader(
+                "# time,lat,lng[,speed,bearing]\n" +
+                "\n" +
+                "1000,60.1,24.9\n" +
+                " 3000 , 60.2 , 25.0 , 12.5 , 90 \n"));
+
+        assertEquals("size", 2, trace.size());
+        assertEquals("duration", 2000L, trace.getDuration());
+
+        TraceRecord first = trace.getRecords().get(0);
+        assertEquals("time", 1000L, first.getTime());
+        assertEquals("lat", 60.1, first.getLatitude());
+        assertEquals("lng", 24.9, first.getLongitude());
+        assertFalse("3 fields have no motion", first.hasMotion());
+
+        TraceRecord second = trace.getRecords().get(1);
+        assertTrue("5 fields have motion", second.hasMotion());
+        assertEquals("speed", 12.5f, second.getSpeed());
+        assertEquals("bearing", 90f, second.getBearing());
+    }
+
+    public void testEmptyTrace() throws Exception {
+        Trace trace = Trace.parse(new StringReader("# nothing\n\n"));
+        assertEquals("size", 0, trace.size());
+        assertEquals("duration", 0L, trace.getDuration());
+    }
+
+    public void testWrongFieldCountReportsLine() throws Exception {
+        try{
+            Trace.parse(new StringReader("1000,60.1,24.9\n2000,60.2\n"));
+            fail("IOException expected");
+        }catch (IOException ioe){
+            assertTrue(ioe.getMessage(), ioe.getMessage().startsWith("Line 2:"));
+        }
+        try{
+            Trace.parse(new StringReader("1000,60.1,24.9,12\n"));
+            fail("IOException expected");
+        }catch (IOException ioe){
+            assertTrue(ioe.getMessage(), ioe.getMessage().startsWith("Line 1:"));
+        }
+    }
+
+    public void testUnparseableNumberReportsLine() throws Exception {
+        try{
+            Trace.parse(new StringReader("# header\n1000,north,24.9\n"));
+            fail("IOException expected");
+        }catch (IOException ioe){
+            assertTrue(ioe.getMessage(), ioe.getMessage().startsWith("Line 2:"));
+        }
+    }
+}
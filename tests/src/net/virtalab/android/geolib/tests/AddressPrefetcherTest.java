@@ -0,0 +1,288 @@
+package net.virtalab.android.geolib.tests;
+
+import android.location.Address;
+import android.location.Location;
+import junit.framework.TestCase;
+import net.virtalab.android.geolib.AddressPrefetcher;
+import net.virtalab.android.geolib.AddressResolver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for AddressPrefetcher
+ */
+public class AddressPrefetcherTest extends TestCase {
+
+    private BlockingResolver resolver;
+    private AddressPrefetcher prefetcher;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        resolver = new BlockingResolver();
+        prefetcher = new AddressPrefetcher.Builder(null).resolver(resolver).budget(2).build();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        resolver.release.countDown();
+        prefetcher.shutdown();
+        super.tearDown();
+    }
+
+    public void testStaleLookupsAreCancelledWhileBlocked() throws Exception {
+        resolver.expectCalls(2);
+        prefetcher.onLocationChanged(fix(60.0, 25.0, 15, 0));
+        assertTrue("lookups did not start", resolver.awaitCalls());
+
+        //far away and standing still - both running lookups are off predicted path
+        resolver.expectCalls(1);
+        prefetcher.onLocationChanged(fix(10.0, 10.0, 0, 0));
+
+        assertTrue("stale lookups were not interrupted", resolver.awaitInterrupted(2));
+        assertTrue("lookup of new cell did not start", resolver.awaitCalls());
+    }
+
+    public void testShutdownWithPendingLookups() throws Exception {
+        resolver.expectCalls(2);
+        prefetcher.onLocationChanged(fix(60.0, 25.0, 15, 0));
+        assertTrue("lookups did not start", resolver.awaitCalls());
+
+        prefetcher.shutdown();
+
+        assertTrue("pending lookups were not interrupted", resolver.awaitInterrupted(2));
+    }
+
+    public void testFixAfterShutdownThenDecode() throws Exception {
+        final AtomicInteger lookups = new AtomicInteger();
+        final AddressPrefetcher closed = new AddressPrefetcher.Builder(null).resolver(new AddressResolver() {
+            @Override
+            public List<Address> getFromLocation(double lat, double lng, int maxResults){
+                lookups.incrementAndGet();
+                List<Address> addresses = new ArrayList<Address>();
+                addresses.add(new Address(Locale.US));
+                return addresses;
+            }
+        }).build();
+        closed.shutdown();
+
+        //update delivered while listener is being removed
+        closed.onLocationChanged(fix(60.0, 25.0, 15, 0));
+        assertEquals("prefetch after shutdown", 0, lookups.get());
+
+        final List<Address> result = new ArrayList<Address>();
+        Thread decode = new Thread(new Runnable() {
+            @Override
+            public void run(){
+                try{
+                    result.addAll(closed.getFromLocation(60.0,25.0,1));
+                }catch (IOException ioe){
+                    //result stays empty
+                }
+            }
+        });
+        decode.start();
+        decode.join(5000);
+        assertFalse("decode after shutdown hangs", decode.isAlive());
+        assertEquals("decode after shutdown", 1, result.size());
+    }
+
+    public void testMissIsSharedWithConcurrentLookupsAndPrefetch() throws Exception {
+        resolver.expectCalls(1);
+        Thread first = decodeAsync(60.0, 25.0);
+        assertTrue("lookup did not start", resolver.awaitCalls());
+
+        //same cell: second decode and prefetch of standing device must join running lookup
+        Thread second = decodeAsync(60.0, 25.0);
+        prefetcher.onLocationChanged(fix(60.0, 25.0, 0, 0));
+        Thread.sleep(200);
+        assertEquals("second lookup started", 1, resolver.total.get());
+
+        resolver.release.countDown();
+        first.join(5000);
+        second.join(5000);
+        assertEquals("second lookup started", 1, resolver.total.get());
+        assertEquals("lookup on caller thread was interrupted", 0, resolver.interrupted.get());
+        //second decode waited for resolver too - only cache and background lookups are hits
+        assertEquals("hits", 0, prefetcher.getHits());
+        assertEquals("misses", 2, prefetcher.getMisses());
+    }
+
+    public void testMissResolvesCellCenter() throws Exception {
+        RecordingResolver recorder = new RecordingResolver();
+        AddressPrefetcher centered = new AddressPrefetcher.Builder(null).resolver(recorder).cellSize(0.0005).build();
+        try{
+            centered.getFromLocation(60.0001,25.0001,1);
+            centered.getFromLocation(60.0004,25.0004,1);
+
+            List<double[]> points = recorder.getPoints();
+            assertEquals("lookups", 1, points.size());
+            assertEquals("center lat", 60.00025, points.get(0)[0], 1e-9);
+            assertEquals("center lng", 25.00025, points.get(0)[1], 1e-9);
+            assertEquals("hits", 1, centered.getHits());
+            assertEquals("misses", 1, centered.getMisses());
+        }finally {
+            centered.shutdown();
+        }
+    }
+
+    public void testEmptyResultIsNotCached() throws Exception {
+        final AtomicInteger lookups = new AtomicInteger();
+        AddressPrefetcher empty = new AddressPrefetcher.Builder(null).resolver(new AddressResolver() {
+            @Override
+            public List<Address> getFromLocation(double lat, double lng, int maxResults){
+                lookups.incrementAndGet();
+                return new ArrayList<Address>();
+            }
+        }).build();
+        try{
+            empty.getFromLocation(60.0,25.0,1);
+            empty.getFromLocation(60.0,25.0,1);
+            assertEquals("empty result was cached", 2, lookups.get());
+        }finally {
+            empty.shutdown();
+        }
+    }
+
+    public void testEastWestPathAtHighLatitudeSkipsNoCell() throws Exception {
+        RecordingResolver recorder = new RecordingResolver();
+        double cellSize = 0.0005;
+        AddressPrefetcher wide = new AddressPrefetcher.Builder(null).resolver(recorder)
+                .cellSize(cellSize).horizon(30000).budget(200).cacheSize(200).build();
+        try{
+            //cells at 70 degrees are about 19 meters wide, much narrower than high
+            wide.onLocationChanged(fix(70.0, 25.0, 30, 90));
+            Set<Long> columns = recorder.awaitColumns(cellSize);
+
+            long first = (long) Math.floor(25.0 / cellSize);
+            long last = first;
+            for (Long column : columns){
+                last = Math.max(last,column);
+            }
+            assertTrue("path too short", last - first > 10);
+            for (long column = first; column <= last; column++){
+                assertTrue("cell column "+column+" skipped", columns.contains(column));
+            }
+        }finally {
+            wide.shutdown();
+        }
+    }
+
+    private Thread decodeAsync(final double lat, final double lng){
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run(){
+                try{
+                    prefetcher.getFromLocation(lat,lng,1);
+                }catch (IOException ioe){
+                    //counted by resolver
+                }
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static Location fix(double lat, double lng, float speed, float bearing){
+        Location location = new Location("gps");
+        location.setLatitude(lat);
+        location.setLongitude(lng);
+        location.setSpeed(speed);
+        location.setBearing(bearing);
+        return location;
+    }
+
+    /**
+     * Resolver which blocks every lookup until released or interrupted
+     */
+    private static class BlockingResolver implements AddressResolver {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger interrupted = new AtomicInteger();
+        final AtomicInteger total = new AtomicInteger();
+        private volatile CountDownLatch calls = new CountDownLatch(0);
+
+        void expectCalls(int count){
+            calls = new CountDownLatch(count);
+        }
+
+        boolean awaitCalls() throws InterruptedException {
+            return calls.await(5, TimeUnit.SECONDS);
+        }
+
+        boolean awaitInterrupted(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (interrupted.get() < count && System.currentTimeMillis() < deadline){
+                Thread.sleep(10);
+            }
+            return interrupted.get() >= count;
+        }
+
+        @Override
+        public List<Address> getFromLocation(double lat, double lng, int maxResults) throws IOException {
+            total.incrementAndGet();
+            calls.countDown();
+            try{
+                release.await();
+            }catch (InterruptedException ie){
+                interrupted.incrementAndGet();
+                throw new IOException("Interrupted");
+            }
+            List<Address> addresses = new ArrayList<Address>();
+            addresses.add(new Address(Locale.US));
+            return addresses;
+        }
+    }
+
+    /**
+     * Resolver which remembers looked up points
+     */
+    private static class RecordingResolver implements AddressResolver {
+        private final List<double[]> points = new ArrayList<double[]>();
+
+        /**
+         * Waits until lookups stop coming and returns their cell columns
+         */
+        Set<Long> awaitColumns(double cellSize) throws InterruptedException {
+            int seen = -1;
+            long deadline = System.currentTimeMillis() + 5000;
+            while (System.currentTimeMillis() < deadline){
+                Thread.sleep(200);
+                synchronized (points){
+                    if(points.size() == seen){ break; }
+                    seen = points.size();
+                }
+            }
+            Set<Long> columns = new HashSet<Long>();
+            synchronized (points){
+                for (double[] point : points){
+                    columns.add((long) Math.floor(point[1] / cellSize));
+                }
+            }
+            return columns;
+        }
+
+        List<double[]> getPoints(){
+            synchronized (points){
+                return new ArrayList<double[]>(points);
+            }
+        }
+
+        @Override
+        public List<Address> getFromLocation(double lat, double lng, int maxResults) throws IOException {
+            synchronized (points){
+                points.add(new double[]{lat, lng});
+            }
+            List<Address> addresses = new ArrayList<Address>();
+            addresses.add(new Address(Locale.US));
+            return addresses;
+        }
+    }
+}